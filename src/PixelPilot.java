@@ -2,18 +2,40 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Ellipse2D;
-import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Random;
-
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
 import javax.swing.ImageIcon;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
@@ -35,7 +57,8 @@ public class PixelPilot extends JFrame {
 	private static final int TARGET_FRAMERATE = 60;
 
 	// window and layout constants
-	private static final PixelPilot INSTANCE = new PixelPilot();
+	// no window is created when running headless (e.g. for the soak benchmark)
+	private static final PixelPilot INSTANCE = GraphicsEnvironment.isHeadless() ? null : new PixelPilot();
 	private static final String WINDOW_TITLE = "Pixel Pilot";
 	private static final int WINDOW_WIDTH = 1000;
 	private static final int WINDOW_HEIGHT = 750;
@@ -48,6 +71,9 @@ public class PixelPilot extends JFrame {
 	private static final int LIVES_X_OFFSET = 24;
 	private static final int LIVES_X_POS = WINDOW_WIDTH - LIVES_X_OFFSET;
 	private static final int LIVES_Y_POS = WINDOW_HEIGHT - 50;
+	private static final int HIGHSCORES_X_POS = WINDOW_WIDTH - 120;
+	private static final int HIGHSCORES_Y_POS = SCORE_Y_POS;
+	private static final int HIGHSCORES_LINE_HEIGHT = 18;
 
 	// graphics constants
 	private static final Color SCORE_COLOR = Color.CYAN;
@@ -76,10 +102,9 @@ public class PixelPilot extends JFrame {
 		new ImageIcon(PixelPilot.class.getResource("Star_3.gif")).getImage(),
 		new ImageIcon(PixelPilot.class.getResource("Star_4.gif")).getImage()
 	};
-	private static final int STAR_NUM_MIN = 150;
-	private static final int STAR_NUM_RANGE = 250;
 	private static final int STAR_SIZE_MIN = 1;
 	private static final int STAR_SIZE_RANGE = 5;
+	private static final Image[][] STAR_SCALED_IMGS = scaleImages(STAR_IMGS, STAR_SIZE_MIN, STAR_SIZE_RANGE);
 
 	// asteroid constants
 	private static final Image[] ASTEROID_IMGS = {
@@ -91,9 +116,13 @@ public class PixelPilot extends JFrame {
 	private static final int ASTEROID_SIZE_RANGE = 30;
 	private static final double ASTEROID_VEL_MIN = 50;
 	private static final double ASTEROID_VEL_RANGE = 50;
-	private static final double ASTEROID_VEL_HITS_MULTIPLIER = .025; 
+	private static final double ASTEROID_VEL_DISTANCE_MULTIPLIER = 2; // 2 pixels/second faster per chunk from the center
+	private static final double ASTEROID_VEL_HITS_MULTIPLIER = .025; // refills get faster as you hit more
 	private static final double ASTEROID_ANGULAR_VEL_MIN = 60;
 	private static final double ASTEROID_ANGULAR_VEL_RANGE = 180;
+	private static final double ASTEROID_SAFE_RADIUS = 300; // no asteroids start this close to the fighter's start
+	private static final double ASTEROID_INBOUND_SPREAD = 90; // refill asteroids head within 45 degrees of the view
+	private static final Image[][] ASTEROID_SCALED_IMGS = scaleImages(ASTEROID_IMGS, ASTEROID_SIZE_MIN, ASTEROID_SIZE_RANGE);
 
 	// bullet constants
 	private static final int BULLET_WIDTH = 6;
@@ -102,17 +131,74 @@ public class PixelPilot extends JFrame {
 		.getImage().getScaledInstance(BULLET_WIDTH, BULLET_HEIGHT, Image.SCALE_SMOOTH);
 	private static final float BULLET_MUZZLE_VELOCITY = 1000;
 
+	// world constants
+	private static final int CHUNK_SIZE = 500; // chunks are square
+	private static final int WORLD_CHUNKS_X = 64;
+	private static final int WORLD_CHUNKS_Y = 64;
+	private static final int WORLD_WIDTH = WORLD_CHUNKS_X * CHUNK_SIZE;
+	private static final int WORLD_HEIGHT = WORLD_CHUNKS_Y * CHUNK_SIZE;
+	private static final int ACTIVE_CHUNK_MARGIN = 1; // chunks loaded around the ones in view
+	private static final int EVICT_CHUNK_MARGIN = 2; // chunks are unloaded once they are further away than this
+	private static final int CHUNK_STARS_MIN = 50;
+	private static final int CHUNK_STARS_RANGE = 85;
+	private static final int CHUNK_ASTEROIDS_RANGE = 3; // 0 to 2 asteroids per chunk near the center of the world
+	private static final int CHUNK_ASTEROIDS_DISTANCE_STEP = 4; // allow one more asteroid every 4 chunks from the center
+	private static final long CHUNK_SEED_X = 0x9E3779B97F4A7C15L; // mixed into the world seed for each chunk
+	private static final long CHUNK_SEED_Y = 0xC2B2AE3D27D4EB4FL;
+
 	// gameplay constants
 	private static final Random RAND = new Random();
 	private static final int INITIAL_LIVES = 3; // start with 3 lives
 	private static final int INITIAL_NEXT_LIFE = 200; // get the first bonus life at 200 points
-	private static final int INITIAL_NEXT_ASTEROID = 15; // add a second target after destroying 15
+	private static final int INITIAL_NEXT_ASTEROID = 15; // add an extra target after destroying 15
 	private static final double INVINCIBILITY_TIME = 3; // 3 seconds
 	private static final double COOLDOWN_TIME = .35; // .35 seconds between shots
 	private static final double FIRING_TIME = .05; // show firing graphic for .05 seconds
 	private static final double LINEAR_ACCELERATION = 300;
 	private static final double ROTATIONAL_VELOCITY= 270;
 
+	// high score constants
+	private static final File HIGHSCORES_FILE = new File(System.getProperty("user.home"), ".pixelpilot_scores");
+	private static final int HIGHSCORES_KEPT = 10; // size of the leaderboard
+	private static final int HIGHSCORES_LOG_RECORDS = 1024; // the log is compacted when it fills up
+	private static final HighScores HIGH_SCORES = new HighScores(HIGHSCORES_FILE);
+
+	// physics constants
+	private static final String VECTOR_KERNEL_CLASS = "VectorIntegrationKernel"; // needs jdk.incubator.vector
+	private static final PhysicsBatch PHYSICS_BATCH = new PhysicsBatch(loadIntegrationKernel()); // reused every tick
+
+	// soak benchmark constants
+	private static final double SOAK_DEFAULT_HOURS = 2; // simulated hours of game time
+	private static final int SOAK_TICKS_PER_SAMPLE = TARGET_FRAMERATE * 60; // take a sample every simulated minute
+	private static final int SOAK_WARMUP_SAMPLES = 2; // let the JIT settle before measuring
+	private static final double SOAK_INPUT_HOLD_MIN = .1; // the driver holds each thrust for .1 to .6 seconds
+	private static final double SOAK_INPUT_HOLD_RANGE = .5;
+	private static final double SOAK_AIM_TOLERANCE = ROTATIONAL_VELOCITY / TARGET_FRAMERATE; // degrees, one tick of turning
+	private static final int SOAK_GAME_SECONDS = 10 * 60; // every simulated game lasts 10 minutes
+	private static final long SOAK_MAX_BYTES_PER_TICK = 1024; // pass/fail thresholds, about 3x a baseline run
+	private static final long SOAK_MAX_RENDER_BYTES_PER_TICK = 3584; // rendering allocates about 2.5KB per tick
+	private static final long SOAK_MAX_HEAP_GROWTH = 8 * 1024 * 1024;
+	private static final long SOAK_MAX_GC_PAUSE_MS = 1000 / TARGET_FRAMERATE; // a longer pause drops a frame
+
+	// kernel benchmark constants
+	private static final int[] KERNELBENCH_SIZES = { 30, 1000, 100000 }; // objects per batch
+	private static final long KERNELBENCH_OBJECTS = 100000000; // objects integrated per measurement
+
+	// soak benchmark variables (updated from the GC notification thread)
+	private static final AtomicLong soakGCCount = new AtomicLong();
+	private static final AtomicLong soakGCTime = new AtomicLong();
+	private static final AtomicLong soakMaxGCPause = new AtomicLong();
+
+	// soak benchmark allocation accounting
+	private static final HashMap<Long, Long> soakThreadBytes = new HashMap<Long, Long>(); // by thread id
+	private static long soakAllocatedBytes = 0;
+
+	// self test variables
+	private static int selfTestFailures = 0;
+
+	// kernel benchmark variables
+	private static double kernelBenchChecksum = 0; // printed, so the JIT can't drop the work
+
 	// input variables
 	private static boolean wDown = false;
 	private static boolean aDown = false;
@@ -124,16 +210,27 @@ public class PixelPilot extends JFrame {
 	private static boolean enterDown = false;
 	private static boolean isPaused = false; // toggled by pressing escape
 
+	// integrate bullets and targets in bulk with PHYSICS_BATCH rather than one at a time.
+	// Turned on by passing -batch to the game or the soak benchmark
+	private static boolean batchIntegration = false;
+
 	// game variables (initialized in resetGame())
 	private static Fighter ship;
 	private static ArrayList<Bullet> bullets;
-	private static ArrayList<Asteroid> targets;
-	private static Star[] stars; // use array because this doesn't grow during the game
+	private static ArrayList<Chunk> chunks; // only the chunks near the camera
+	private static long worldSeed;
+	private static double camX; // top left corner of the view in world coordinates
+	private static double camY;
+	private static int activeMinCX; // range of chunk coordinates that are loaded around the view
+	private static int activeMinCY;
+	private static int activeMaxCX;
+	private static int activeMaxCY;
 	private static int numLives;
 	private static int targetsHit;
 	private static int nextLifeGain;
 	private static int score;
 	private static int nextAsteroid;
+	private static int extraTargets; // kept on top of the chunks' own densities by refills
 	private static double timeSinceLastHit;
 	private static double invincibilityTimer;
 	private static double cooldownTimer;
@@ -154,93 +251,168 @@ public class PixelPilot extends JFrame {
 		numLives = INITIAL_LIVES;
 		nextLifeGain = INITIAL_NEXT_LIFE;
 		nextAsteroid = INITIAL_NEXT_ASTEROID;
+		extraTargets = 0;
 		score = 0;
 		targetsHit = 0;
 		invincibilityTimer = 0;
 		cooldownTimer = 0;
 		timeSinceLastHit = 0;
 		bullets = new ArrayList<Bullet>();
-		targets = new ArrayList<Asteroid>();
-		targets.add(newTarget());
 		ship = new Fighter();
-		stars = getNewStars();
+
+		// start a brand new world around the ship
+		worldSeed = RAND.nextLong();
+		chunks = new ArrayList<Chunk>();
+		activeMinCX = -1;
+		updateCamera();
+	}
+
+	// scale every image to every size from min to min + range - 1 ahead of time, so stars and
+	// asteroids share scaled images instead of making new ones. Indexed by image, then size - min
+	private static Image[][] scaleImages(Image[] imgs, int min, int range) {
+		Image[][] scaled = new Image[imgs.length][range];
+		for (int i = 0; i < imgs.length; i++) {
+			for (int j = 0; j < range; j++) {
+				scaled[i][j] = imgs[i].getScaledInstance(min + j, -1, Image.SCALE_SMOOTH);
+			}
+		}
+		return scaled;
+	}
+
+	// center the camera on the ship without looking past the edge of the world, then make sure
+	// the chunks around it are loaded
+	private static void updateCamera() {
+		camX = ship.x + (FIGHTER_WIDTH - WINDOW_WIDTH) / 2;
+		camY = ship.y + (FIGHTER_HEIGHT - WINDOW_HEIGHT) / 2;
+		camX = Math.max(0, Math.min(WORLD_WIDTH - WINDOW_WIDTH, camX));
+		camY = Math.max(0, Math.min(WORLD_HEIGHT - WINDOW_HEIGHT, camY));
+
+		// nothing to do unless the view has moved into different chunks
+		int minCX = Math.max(0, (int) camX / CHUNK_SIZE - ACTIVE_CHUNK_MARGIN);
+		int minCY = Math.max(0, (int) camY / CHUNK_SIZE - ACTIVE_CHUNK_MARGIN);
+		int maxCX = Math.min(WORLD_CHUNKS_X - 1, (int) (camX + WINDOW_WIDTH) / CHUNK_SIZE + ACTIVE_CHUNK_MARGIN);
+		int maxCY = Math.min(WORLD_CHUNKS_Y - 1, (int) (camY + WINDOW_HEIGHT) / CHUNK_SIZE + ACTIVE_CHUNK_MARGIN);
+		if (minCX == activeMinCX && minCY == activeMinCY && maxCX == activeMaxCX && maxCY == activeMaxCY) {
+			return;
+		}
+		activeMinCX = minCX;
+		activeMinCY = minCY;
+		activeMaxCX = maxCX;
+		activeMaxCY = maxCY;
+
+		// evict chunks that are well out of range. A little slack keeps chunks on the border
+		// from being regenerated every time the ship wiggles back and forth
+		int slack = EVICT_CHUNK_MARGIN - ACTIVE_CHUNK_MARGIN;
+		for (int i = chunks.size() - 1; i >= 0; i--) {
+			Chunk c = chunks.get(i);
+			if (c.cx < minCX - slack || c.cx > maxCX + slack || c.cy < minCY - slack || c.cy > maxCY + slack) {
+				chunks.set(i, chunks.get(chunks.size() - 1));
+				chunks.remove(chunks.size() - 1);
+			}
+		}
+
+		// load chunks that just came into range
+		for (int cx = minCX; cx <= maxCX; cx++) {
+			for (int cy = minCY; cy <= maxCY; cy++) {
+				if (getChunk(cx, cy) == null) {
+					chunks.add(newChunk(cx, cy));
+				}
+			}
+		}
 	}
 
-	// generate a new starfield
-	private static Star[] getNewStars() {
+	// find a loaded chunk by its coordinates, or null if it isn't loaded. There are only ever a
+	// few dozen chunks loaded, so a linear search is fine
+	private static Chunk getChunk(int cx, int cy) {
+		for (int i = 0; i < chunks.size(); i++) {
+			Chunk c = chunks.get(i);
+			if (c.cx == cx && c.cy == cy) {
+				return c;
+			}
+		}
+		return null;
+	}
+
+	// whether anything in a chunk can be seen through the camera. Asteroids belong to the chunk
+	// their center is in, so they can stick out of it by up to their radius
+	private static boolean isVisible(Chunk chunk) {
+		int pad = ASTEROID_SIZE_MIN + ASTEROID_SIZE_RANGE;
+		return isVisible(chunk.cx * CHUNK_SIZE - pad, chunk.cy * CHUNK_SIZE - pad, CHUNK_SIZE + 2 * pad, CHUNK_SIZE + 2 * pad);
+	}
+
+	// whether a rectangle in world coordinates can be seen through the camera
+	private static boolean isVisible(double x, double y, double width, double height) {
+		return x < camX + WINDOW_WIDTH && x + width > camX && y < camY + WINDOW_HEIGHT && y + height > camY;
+	}
+
+	// generate a chunk's stars and asteroids. The same chunk of the same world always comes out
+	// the same, so a chunk can be thrown away and regenerated later
+	private static Chunk newChunk(int cx, int cy) {
+		Random rand = new Random(worldSeed ^ cx * CHUNK_SEED_X ^ cy * CHUNK_SEED_Y);
+
+		// the further from the center of the world, the more asteroids there are
+		double distance = Math.hypot(cx + .5 - WORLD_CHUNKS_X / 2.0, cy + .5 - WORLD_CHUNKS_Y / 2.0);
+		Chunk chunk = new Chunk(cx, cy, distance, rand, getNewStars(rand, cx, cy));
+		chunk.density = rand.nextInt(CHUNK_ASTEROIDS_RANGE + (int) (distance / CHUNK_ASTEROIDS_DISTANCE_STEP));
+		for (int i = 0; i < chunk.density; i++) {
+			Asteroid a = newTarget(rand, cx, cy, distance, false);
+
+			// give the fighter some room where it starts
+			if (Math.hypot(a.x - WORLD_WIDTH / 2, a.y - WORLD_HEIGHT / 2) > ASTEROID_SAFE_RADIUS) {
+				chunk.asteroids.add(a);
+			}
+		}
+		return chunk;
+	}
+
+	// generate the stars in a chunk
+	private static Star[] getNewStars(Random rand, int cx, int cy) {
 		// randomly determine number of stars
-		int numStars = RAND.nextInt(STAR_NUM_RANGE) + STAR_NUM_MIN;
+		int numStars = rand.nextInt(CHUNK_STARS_RANGE) + CHUNK_STARS_MIN;
 		Star[] stars = new Star[numStars];
 		// randomly generate parameters for each star
 		for (int i = 0; i < numStars; i++) {
-			stars[i] = new Star(RAND.nextInt(WINDOW_WIDTH), RAND.nextInt(WINDOW_HEIGHT),
-					STAR_IMGS[RAND.nextInt(STAR_IMGS.length)]
-					.getScaledInstance(RAND.nextInt(STAR_SIZE_RANGE)+STAR_SIZE_MIN, -1, Image.SCALE_SMOOTH));
+			stars[i] = new Star(cx * CHUNK_SIZE + rand.nextInt(CHUNK_SIZE), cy * CHUNK_SIZE + rand.nextInt(CHUNK_SIZE),
+					STAR_SCALED_IMGS[rand.nextInt(STAR_SCALED_IMGS.length)][rand.nextInt(STAR_SIZE_RANGE)]);
 		}
 		return stars;
 	}
 
-	// create and return a new procedurally generated asteroid that will travel from
-	// a random point on one edge of the window to a random point on the opposite edge.
-	private static Asteroid newTarget() {
+	// create and return a new procedurally generated asteroid centered somewhere in a chunk and
+	// drifting in a random direction, or roughly toward the view if inbound. Asteroids further from
+	// the center of the world are faster
+	private static Asteroid newTarget(Random rand, int cx, int cy, double distance, boolean inbound) {
 		double x, y, r, dx, dy, dr;
 		int diameter;
-		int targetX, targetY;
 		Image img;
 
 		// randomly determine diameter and angular velocity
-		diameter = RAND.nextInt(ASTEROID_SIZE_RANGE) + ASTEROID_SIZE_MIN;
-		r = RAND.nextInt(360);
-		dr = RAND.nextDouble() * ASTEROID_ANGULAR_VEL_RANGE - ASTEROID_ANGULAR_VEL_MIN;
-
-		// initial placement on bottom or top of window
-		if (RAND.nextBoolean())
-		{
-			x = RAND.nextInt(WINDOW_WIDTH + diameter) - diameter;
-			targetX = RAND.nextInt(WINDOW_WIDTH + diameter) - diameter;
-
-			// spawn on top of window (y is down)
-			if (RAND.nextBoolean()) {
-				y = -diameter;
-				targetY = WINDOW_HEIGHT;
-			}
-			// spawn on bottom of window
-			else {
-				y = WINDOW_HEIGHT;
-				targetY = -diameter;
-			}
-		}
-		// initial placement on left or right of window
-		else
-		{
-			y = RAND.nextInt(WINDOW_HEIGHT + diameter) - diameter;
-			targetY = RAND.nextInt(WINDOW_HEIGHT + diameter) - diameter;
-
-			// spawn on left side of window
-			if (RAND.nextBoolean()) {
-				x = -diameter;
-				targetX = WINDOW_WIDTH;
-			}
-			// spawn on right side of window
-			else {
-				x = WINDOW_WIDTH;
-				targetX =  -diameter;
-			}
+		diameter = rand.nextInt(ASTEROID_SIZE_RANGE) + ASTEROID_SIZE_MIN;
+		r = rand.nextInt(360);
+		dr = rand.nextDouble() * ASTEROID_ANGULAR_VEL_RANGE - ASTEROID_ANGULAR_VEL_MIN;
+
+		// randomly place it in the chunk
+		x = cx * CHUNK_SIZE + rand.nextInt(CHUNK_SIZE) - diameter / 2;
+		y = cy * CHUNK_SIZE + rand.nextInt(CHUNK_SIZE) - diameter / 2;
+
+		// randomly determine speed and direction
+		double speed = rand.nextDouble() * ASTEROID_VEL_RANGE + ASTEROID_VEL_MIN +
+				distance * ASTEROID_VEL_DISTANCE_MULTIPLIER;
+		double theta = rand.nextDouble() * 2 * Math.PI;
+		if (inbound) {
+			// refills also speed up as the game goes on. Chunk generation doesn't, so the world
+			// stays the same for the same seed
+			speed += targetsHit * ASTEROID_VEL_HITS_MULTIPLIER;
+			theta = Math.atan2(camY + WINDOW_HEIGHT / 2 - y, camX + WINDOW_WIDTH / 2 - x) +
+					Math.toRadians((rand.nextDouble() - .5) * ASTEROID_INBOUND_SPREAD);
 		}
 
-		// randomly determine speed
-		double speed = RAND.nextDouble() * ASTEROID_VEL_RANGE + ASTEROID_VEL_MIN +
-				targetsHit * ASTEROID_VEL_HITS_MULTIPLIER;
-
-		// determine angle of path across window
-		double theta = Math.atan2(targetY - y, targetX - x);
-
 		// determine x and y components of velocity
 		dx = Math.cos(theta) * speed;
 		dy = Math.sin(theta) * speed;
 
 		// randomly choose an asteroid image
-		img = ASTEROID_IMGS[RAND.nextInt(ASTEROID_IMGS.length)].getScaledInstance(diameter, -1, Image.SCALE_SMOOTH);
+		img = ASTEROID_SCALED_IMGS[rand.nextInt(ASTEROID_SCALED_IMGS.length)][diameter - ASTEROID_SIZE_MIN];
 
 		return new Asteroid(x, y, r, dx, dy, dr, diameter, img);	
 	}
@@ -321,7 +493,6 @@ public class PixelPilot extends JFrame {
 
 		// update ship position
 		ship.update(dt);
-		Rectangle2D.Double shipHitBox = ship.getHitBox();
 
 		// create new bullets
 		if (cooldownTimer <= 0 && spDown && invincibilityTimer <= 0) {
@@ -329,78 +500,129 @@ public class PixelPilot extends JFrame {
 			addNewBullets();
 		}
 
-		// ship left window
-		if (ship.x > WINDOW_WIDTH || ship.x < 0 - FIGHTER_WIDTH ||
-				ship.y > WINDOW_HEIGHT || ship.y < 0 - FIGHTER_HEIGHT) {
+		// ship left the world
+		if (ship.x > WORLD_WIDTH || ship.x < 0 - FIGHTER_WIDTH ||
+				ship.y > WORLD_HEIGHT || ship.y < 0 - FIGHTER_HEIGHT) {
 			resetShip = true;
 		}
 
+		// update bullet and target positions all at once
+		if (batchIntegration) {
+			PHYSICS_BATCH.clear();
+			PHYSICS_BATCH.addAll(bullets);
+			for (Chunk chunk : chunks) {
+				PHYSICS_BATCH.addAll(chunk.asteroids);
+			}
+			PHYSICS_BATCH.update(dt);
+		}
+
 		// update bullet positions
 		for (int i = bullets.size() - 1; i >= 0; i--) {
 			Bullet b = bullets.get(i);
 
 			// update bullet position
-			b.update(dt);
+			if (!batchIntegration) {
+				b.update(dt);
+			}
 
-			// bullet left window
-			if (b.x > WINDOW_WIDTH || b.x < 0 - BULLET_WIDTH ||
-					b.y > WINDOW_HEIGHT || b.y < 0 - BULLET_HEIGHT) {
+			// bullet left view
+			if (!isVisible(b.x, b.y, BULLET_WIDTH, BULLET_HEIGHT)) {
 				bullets.set(i, bullets.get(bullets.size() - 1));
 				bullets.remove(bullets.size()-1);
 			}
 		}
 
-		// update targets (asteroids)
-		for (int i = 0; i < targets.size(); i++) {
-			Asteroid target = targets.get(i);
-
-			// update target positions
-			target.update(dt);
+		// update targets (asteroids) in every loaded chunk
+		for (Chunk chunk : chunks) {
+			ArrayList<Asteroid> targets = chunk.asteroids;
+			for (int i = targets.size() - 1; i >= 0; i--) {
+				Asteroid target = targets.get(i);
 
-			Ellipse2D.Double hitCircle = target.getHitCircle();
-
-			// target left window
-			if (target.x > WINDOW_WIDTH || target.x < 0 - target.diameter ||
-					target.y > WINDOW_HEIGHT || target.y < 0 - target.diameter) {
-				targets.set(i, newTarget());
-			}
-			// target destroys ship
-			else if (invincibilityTimer <= 0 && hitCircle.intersects(shipHitBox)) {
-				targets.set(i, newTarget());
-				resetShip = true;
-			}
-			// check if any bullets hit the target
-			else for (int j = 0; j < bullets.size(); j++) {
-				// target intersects bullet
-				if (hitCircle.contains(bullets.get(j).getHitPoint())) {
-					targets.set(i, newTarget());
-					bullets.set(j, bullets.get(bullets.size() - 1));
-					bullets.remove(bullets.size() - 1);
-					targetsHit++;
+				// update target positions
+				if (!batchIntegration) {
+					target.update(dt);
+				}
 
-					// apply bonus score for speedy combos
-					if (timeSinceLastHit < 3) {
-						score += 6 - timeSinceLastHit * 2;
+				// target destroys ship
+				if (invincibilityTimer <= 0 && target.intersects(ship.x, ship.y, FIGHTER_WIDTH, FIGHTER_HEIGHT)) {
+					targets.set(i, targets.get(targets.size() - 1));
+					targets.remove(targets.size() - 1);
+					resetShip = true;
+				}
+				// check if any bullets hit the target
+				else for (int j = 0; j < bullets.size(); j++) {
+					// target intersects bullet
+					Bullet b = bullets.get(j);
+					if (target.contains(b.getHitX(), b.getHitY())) {
+						targets.set(i, targets.get(targets.size() - 1));
+						targets.remove(targets.size() - 1);
+						bullets.set(j, bullets.get(bullets.size() - 1));
+						bullets.remove(bullets.size() - 1);
+
+						// apply bonus score for speedy combos
+						if (timeSinceLastHit < 3) {
+							score += 6 - timeSinceLastHit * 2;
+						}
+						score += 10;
+						timeSinceLastHit = 0;
+						targetsHit++;
+
+						// gain a bonus life
+						if (score >= nextLifeGain) {
+							numLives++;
+							nextLifeGain *= 2;
+						}
+
+						// add an asteroid (the next refill brings it in)
+						if (targetsHit > nextAsteroid) {
+							nextAsteroid += 15 + extraTargets * 2;
+							extraTargets++;
+						}
+						break;
 					}
-					score += 10;
-					timeSinceLastHit = 0;
+				}
+			}
+		}
 
-					// gain a bonus life
-					if (score >= nextLifeGain) {
-						numLives++;
-						nextLifeGain *= 2;
-					}
+		// move targets that drifted into another chunk. Targets heading into a chunk that isn't
+		// loaded or off the edge of the world are forgotten
+		for (Chunk chunk : chunks) {
+			ArrayList<Asteroid> targets = chunk.asteroids;
+			for (int i = targets.size() - 1; i >= 0; i--) {
+				Asteroid target = targets.get(i);
+				int cx = (int) Math.floor((target.x + target.diameter / 2) / CHUNK_SIZE);
+				int cy = (int) Math.floor((target.y + target.diameter / 2) / CHUNK_SIZE);
+				if (cx == chunk.cx && cy == chunk.cy) {
+					continue;
+				}
 
-					// add an asteroid
-					if (targetsHit > nextAsteroid) {
-						nextAsteroid += 15 + targets.size() * 2;
-						targets.add(newTarget());
-					}
-					break;
+				targets.set(i, targets.get(targets.size() - 1));
+				targets.remove(targets.size() - 1);
+				Chunk next = getChunk(cx, cy);
+				if (next != null) {
+					next.asteroids.add(target);
 				}
 			}
 		}
 
+		// keep the loaded area at the number of targets its chunks started with, plus the extra
+		// targets earned by hitting, by topping up chunks that are out of view. The new targets
+		// head toward the view, so the field around the ship never runs dry
+		int numTargets = 0;
+		int density = extraTargets;
+		for (Chunk chunk : chunks) {
+			numTargets += chunk.asteroids.size();
+			density += chunk.density;
+		}
+		int extraPerChunk = (extraTargets + chunks.size() - 1) / Math.max(chunks.size(), 1); // spread them out
+		for (int i = 0; i < chunks.size() && numTargets < density; i++) {
+			Chunk chunk = chunks.get(i);
+			if (chunk.asteroids.size() < chunk.density + extraPerChunk && !isVisible(chunk)) {
+				chunk.asteroids.add(newTarget(chunk.rand, chunk.cx, chunk.cy, chunk.distance, true));
+				numTargets++;
+			}
+		}
+
 		// something bad happened to the ship. If not invincible lose a life and become invincible
 		if (resetShip) {
 			ship = new Fighter();
@@ -409,6 +631,9 @@ public class PixelPilot extends JFrame {
 				invincibilityTimer = INVINCIBILITY_TIME;
 			}	
 		}
+
+		// follow the ship, loading and evicting chunks as necessary
+		updateCamera();
 	}
 	
 	// draw a frame of the game
@@ -418,28 +643,32 @@ public class PixelPilot extends JFrame {
 		g2.setPaint(BG_COLOR);
 		g2.fill(BG_SHAPE);
 
-		// draw star field
-		for (int i = 0; i < stars.length; i++) {
-			g2.drawImage(stars[i].img, stars[i].x, stars[i].y, null);
-		}
-
-		// draw "game over" text if necessary
-		if (numLives == 0) {
-			g2.drawImage(GAMEOVER_IMG, GAMEOVER_X_POS, GAMEOVER_Y_POS, null);
-		}
+		// draw the world as seen by the camera, skipping chunks that are out of view
+		AffineTransform screen = g2.getTransform();
+		g2.translate(-(int) camX, -(int) camY);
+		boolean normalFrame = numLives != 0 && !isPaused;
+		for (Chunk chunk : chunks) {
+			if (!isVisible(chunk)) {
+				continue;
+			}
 
-		// draw "paused" text if necessary
-		else if (isPaused) {
-			g2.drawImage(PAUSED_IMG, PAUSED_X_POS, PAUSED_Y_POS, null);
-		}
+			// draw star field
+			for (int i = 0; i < chunk.stars.length; i++) {
+				g2.drawImage(chunk.stars[i].img, chunk.stars[i].x, chunk.stars[i].y, null);
+			}
 
-		// draw normal frame
-		else {
 			// draw asteroids
-			for (Asteroid a : targets) {
-				a.draw(g2);
+			if (normalFrame) {
+				for (Asteroid a : chunk.asteroids) {
+					if (isVisible(a.x, a.y, a.diameter, a.diameter)) {
+						a.draw(g2);
+					}
+				}
 			}
+		}
 
+		// draw normal frame
+		if (normalFrame) {
 			// draw ship
 			ship.draw(g2);
 
@@ -448,6 +677,26 @@ public class PixelPilot extends JFrame {
 				b.draw(g2);
 			}
 		}
+		g2.setTransform(screen);
+
+		// draw "game over" text if necessary
+		if (numLives == 0) {
+			g2.drawImage(GAMEOVER_IMG, GAMEOVER_X_POS, GAMEOVER_Y_POS, null);
+
+			// draw the leaderboard
+			int[] highScores = HIGH_SCORES.getTopScores();
+			g2.setColor(SCORE_COLOR);
+			g2.drawString("High Scores", HIGHSCORES_X_POS, HIGHSCORES_Y_POS);
+			for (int i = 0; i < highScores.length; i++) {
+				g2.drawString((i + 1) + ". " + highScores[i], HIGHSCORES_X_POS,
+						HIGHSCORES_Y_POS + (i + 1) * HIGHSCORES_LINE_HEIGHT);
+			}
+		}
+
+		// draw "paused" text if necessary
+		else if (isPaused) {
+			g2.drawImage(PAUSED_IMG, PAUSED_X_POS, PAUSED_Y_POS, null);
+		}
 
 		// draw lives
 		for (int i = 0; i < numLives; i++) {
@@ -477,6 +726,108 @@ public class PixelPilot extends JFrame {
 		}
 	}
 
+	// integrates the positions and rotations of physics objects stored in parallel arrays.
+	// Implementations must give exactly the same results as PhysicsObject.update()
+	interface IntegrationKernel {
+		String getName();
+		void integrate(double[] x, double[] y, double[] r, double[] dx, double[] dy, double[] dr, int n, double dt);
+	}
+
+	// the same math as PhysicsObject.update(), one object at a time
+	private static class ScalarIntegrationKernel implements IntegrationKernel {
+		public String getName() {
+			return "scalar";
+		}
+
+		public void integrate(double[] x, double[] y, double[] r, double[] dx, double[] dy, double[] dr, int n, double dt) {
+			for (int i = 0; i < n; i++) {
+				x[i] += dx[i] * dt;
+				y[i] += dy[i] * dt;
+				r[i] = (r[i] + 360 + dr[i] * dt) % 360;
+			}
+		}
+	}
+
+	// use the Vector API kernel if it was compiled and its module was added when starting the JVM
+	private static IntegrationKernel loadIntegrationKernel() {
+		try {
+			return (IntegrationKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			return new ScalarIntegrationKernel(); // not compiled
+		} catch (LinkageError e) {
+			return new ScalarIntegrationKernel(); // compiled, but jdk.incubator.vector wasn't added
+		}
+	}
+
+	// integrates many physics objects at once. Positions and velocities are gathered into
+	// parallel arrays, integrated by a kernel in one pass, and the results copied back. Gathering
+	// and scattering cost more than the integration itself, so with the scalar kernel this is
+	// slower than calling update() on each object. It only pays off with the Vector API kernel
+	// (see -kernelbench)
+	private static class PhysicsBatch {
+		private final IntegrationKernel kernel;
+		private PhysicsObject[] objects = new PhysicsObject[0];
+		private double[] x = new double[0];
+		private double[] y = new double[0];
+		private double[] r = new double[0];
+		private double[] dx = new double[0];
+		private double[] dy = new double[0];
+		private double[] dr = new double[0];
+		private int size = 0;
+
+		public PhysicsBatch(IntegrationKernel kernel) {
+			this.kernel = kernel;
+		}
+
+		public IntegrationKernel getKernel() {
+			return kernel;
+		}
+
+		// empty the batch, dropping references to the objects so they can be collected
+		public void clear() {
+			Arrays.fill(objects, 0, size, null);
+			size = 0;
+		}
+
+		public void addAll(ArrayList<? extends PhysicsObject> list) {
+			// grow the arrays if necessary. They never shrink, so this stops allocating quickly
+			int n = size + list.size();
+			if (objects.length < n) {
+				int capacity = Math.max(n, objects.length * 2);
+				objects = Arrays.copyOf(objects, capacity);
+				x = Arrays.copyOf(x, capacity);
+				y = Arrays.copyOf(y, capacity);
+				r = Arrays.copyOf(r, capacity);
+				dx = Arrays.copyOf(dx, capacity);
+				dy = Arrays.copyOf(dy, capacity);
+				dr = Arrays.copyOf(dr, capacity);
+			}
+
+			for (int i = 0; i < list.size(); i++) {
+				PhysicsObject o = list.get(i);
+				objects[size] = o;
+				x[size] = o.x;
+				y[size] = o.y;
+				r[size] = o.r;
+				dx[size] = o.dx;
+				dy[size] = o.dy;
+				dr[size] = o.dr;
+				size++;
+			}
+		}
+
+		// integrate everything in the batch and copy the results back to the objects
+		public void update(double dt) {
+			kernel.integrate(x, y, r, dx, dy, dr, size, dt);
+			for (int i = 0; i < size; i++) {
+				PhysicsObject o = objects[i];
+				o.x = x[i];
+				o.y = y[i];
+				o.r = r[i];
+			}
+		}
+	}
+
 	// represents a single instance of an Asteroid
 	private static class Asteroid extends PhysicsObject {
 
@@ -494,8 +845,21 @@ public class PixelPilot extends JFrame {
 			this.img = img;
 		}
 
-		public Ellipse2D.Double getHitCircle() {
-			return new Ellipse2D.Double(x, y, diameter, diameter);
+		// whether a point is inside the asteroid's hit circle. Plain arithmetic rather than an
+		// Ellipse2D so the per-tick collision checks don't allocate
+		public boolean contains(double px, double py) {
+			double radius = diameter / 2;
+			double distX = px - (x + radius);
+			double distY = py - (y + radius);
+			return distX * distX + distY * distY < radius * radius;
+		}
+
+		// whether a rectangle overlaps the asteroid's hit circle
+		public boolean intersects(double rx, double ry, double width, double height) {
+			double radius = diameter / 2;
+			double distX = Math.max(rx, Math.min(rx + width, x + radius)) - (x + radius);
+			double distY = Math.max(ry, Math.min(ry + height, y + radius)) - (y + radius);
+			return distX * distX + distY * distY < radius * radius;
 		}
 
 		// rotates the camera around the center of the object, draws the image, then restores the camera position
@@ -511,8 +875,8 @@ public class PixelPilot extends JFrame {
 	private static class Fighter extends PhysicsObject {
 
 		public Fighter() {
-			this.x = (WINDOW_WIDTH - FIGHTER_WIDTH) / 2;
-			this.y = (WINDOW_HEIGHT - FIGHTER_HEIGHT) / 2;
+			this.x = (WORLD_WIDTH - FIGHTER_WIDTH) / 2;
+			this.y = (WORLD_HEIGHT - FIGHTER_HEIGHT) / 2;
 			this.r = 0;
 		}
 
@@ -543,10 +907,7 @@ public class PixelPilot extends JFrame {
 			// restpre the camera to its original position
 			g2.setTransform(original);
 		}
-		
-		public Rectangle2D.Double getHitBox() {
-			return new Rectangle2D.Double(x, y, FIGHTER_WIDTH, FIGHTER_HEIGHT);
-		}
+
 	}
 
 	// represents a single instance of a bullet emitted by the fighter
@@ -567,11 +928,35 @@ public class PixelPilot extends JFrame {
 			g2.setTransform(original);
 		}
 		
-		public Point2D.Double getHitPoint() {
-			return new Point2D.Double(x + BULLET_WIDTH / 2, y + BULLET_WIDTH / 2);
+		public double getHitX() {
+			return x + BULLET_WIDTH / 2;
+		}
+
+		public double getHitY() {
+			return y + BULLET_WIDTH / 2;
 		}
 	}
 	
+	// represents a square piece of the world, CHUNK_SIZE pixels on a side. Chunks are only kept
+	// around while they are near the camera
+	private static class Chunk {
+		public int cx; // position in the world, in chunks
+		public int cy;
+		public double distance; // from the center of the world, in chunks
+		public Random rand; // seeded from the world, keeps generating this chunk's refills
+		public int density; // number of asteroids the chunk is kept topped up to
+		public ArrayList<Asteroid> asteroids = new ArrayList<Asteroid>();
+		public Star[] stars; // use array because this doesn't grow during the game
+
+		public Chunk(int cx, int cy, double distance, Random rand, Star[] stars) {
+			this.cx = cx;
+			this.cy = cy;
+			this.distance = distance;
+			this.rand = rand;
+			this.stars = stars;
+		}
+	}
+
 	// represents a single star in the background starfield
 	private static class Star {
 		public int x;
@@ -585,6 +970,236 @@ public class PixelPilot extends JFrame {
 		}
 	}
 
+	// the local leaderboard, persisted across runs in an append-only log of checksummed records.
+	// The log is memory mapped and only touched by a background writer thread, so submitting a
+	// score never blocks the game loop. On startup the log is scanned to rebuild the top scores,
+	// stopping at the first record that is missing or torn by a crash.
+	//
+	// The log file holds two regions, each a header followed by records. Only the region whose
+	// header has the highest generation is live. When the live region fills up, the top scores are
+	// written to the other region, flushed, and only then is its header written with the next
+	// generation. A crash at any point during compaction leaves the old region live and intact,
+	// and the file is never replaced, so it can stay mapped the whole time.
+	private static class HighScores implements Runnable {
+		// header layout: magic, generation, CRC32 of the preceding fields
+		private static final int HEADER_MAGIC = 0x50695848; // "PiXH"
+		private static final int HEADER_SIZE = 16;
+		// record layout: magic, score, time (epoch milliseconds), CRC32 of the region's generation
+		// and the preceding fields. Including the generation means records left over from the last
+		// time a region was live never look intact
+		private static final int MAGIC = 0x50695850; // "PiXP"
+		private static final int RECORD_SIZE = 20;
+		private static final int REGION_SIZE = HEADER_SIZE + HIGHSCORES_LOG_RECORDS * RECORD_SIZE;
+
+		private final File file;
+		private final LinkedBlockingQueue<Integer> pending = new LinkedBlockingQueue<Integer>();
+
+		// only touched by the writer thread
+		private FileChannel channel;
+		private MappedByteBuffer log;
+		private int region; // start of the live region
+		private long generation; // generation of the live region
+		private int end; // offset where the next record will be appended
+		private int[] scores = new int[0]; // top scores and their times, best first
+		private long[] times = new long[0];
+
+		// published copy of the top scores for the game to read
+		private volatile int[] topScores = new int[0];
+
+		public HighScores(File file) {
+			this.file = file;
+		}
+
+		// start the background writer, which loads the log before accepting scores
+		public void start() {
+			Thread writer = new Thread(this, "High score writer");
+			writer.setDaemon(true);
+			writer.start();
+		}
+
+		// queue a score to be recorded. Never blocks
+		public void submit(int score) {
+			pending.offer(score);
+		}
+
+		// the best scores recorded so far, best first
+		public int[] getTopScores() {
+			return topScores;
+		}
+
+		public void run() {
+			try {
+				open();
+			} catch (IOException e) {
+				// keep a leaderboard for this run even if it can't be saved
+				System.err.println("Could not open high score log " + file + ": " + e);
+				closeLog();
+			}
+
+			while (true) {
+				try {
+					record(pending.take(), System.currentTimeMillis());
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		// add a score to the top scores and the log. A full log is compacted before the score is
+		// added, otherwise compaction would copy it and the append would write it a second time
+		private void record(int score, long time) {
+			if (log != null && end + RECORD_SIZE > region + REGION_SIZE) {
+				compact();
+			}
+			insert(score, time);
+			if (log != null) {
+				append(score, time);
+			}
+		}
+
+		// map the log, pick the live region and rebuild the top scores from every intact record
+		private void open() throws IOException {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+			// two games appending to the same log would overwrite each other's records. The lock
+			// is released when the channel is closed
+			FileLock lock;
+			try {
+				lock = channel.tryLock();
+			} catch (OverlappingFileLockException e) {
+				lock = null; // held by another log in this JVM
+			}
+			if (lock == null) {
+				throw new IOException("in use by another game");
+			}
+
+			log = channel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * REGION_SIZE);
+
+			// a region with a torn or missing header is never live
+			long first = readHeader(0);
+			long second = readHeader(REGION_SIZE);
+			if (first < 0 && second < 0) {
+				writeHeader(0, 1); // new log
+				first = 1;
+			}
+			region = first >= second ? 0 : REGION_SIZE;
+			generation = Math.max(first, second);
+
+			end = region + HEADER_SIZE;
+			while (end + RECORD_SIZE <= region + REGION_SIZE && log.getInt(end) == MAGIC) {
+				int score = log.getInt(end + 4);
+				long time = log.getLong(end + 8);
+				if (log.getInt(end + 16) != checksum(generation, score, time)) {
+					break; // torn write, the next append will overwrite it
+				}
+				insert(score, time);
+				end += RECORD_SIZE;
+			}
+		}
+
+		private void closeLog() {
+			log = null;
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {}
+				channel = null;
+			}
+		}
+
+		// the generation in a region's header, or -1 if the header isn't intact
+		private long readHeader(int start) {
+			long gen = log.getLong(start + 4);
+			if (log.getInt(start) != HEADER_MAGIC || log.getInt(start + 12) != checksum(gen)) {
+				return -1;
+			}
+			return gen;
+		}
+
+		private void writeHeader(int start, long gen) {
+			log.putLong(start + 4, gen);
+			log.putInt(start + 12, checksum(gen));
+			log.putInt(start, HEADER_MAGIC);
+			log.force();
+		}
+
+		// write a record and flush it to disk before the next one is started, so only the
+		// last record in the log can ever be torn
+		private void append(int score, long time) {
+			writeRecord(end, generation, score, time);
+			log.force();
+			end += RECORD_SIZE;
+		}
+
+		private void writeRecord(int offset, long gen, int score, long time) {
+			log.putInt(offset + 4, score);
+			log.putLong(offset + 8, time);
+			log.putInt(offset + 16, checksum(gen, score, time));
+			log.putInt(offset, MAGIC);
+		}
+
+		// copy the top scores into the other region and make it live
+		private void compact() {
+			int next = REGION_SIZE - region;
+			writeCompacted(next);
+			writeHeader(next, generation + 1);
+			region = next;
+			generation++;
+			end = region + HEADER_SIZE + scores.length * RECORD_SIZE;
+		}
+
+		// the first half of compaction: the top scores are flushed to the other region before its
+		// header says it is live
+		private void writeCompacted(int next) {
+			for (int i = 0; i < scores.length; i++) {
+				writeRecord(next + HEADER_SIZE + i * RECORD_SIZE, generation + 1, scores[i], times[i]);
+			}
+			log.force();
+		}
+
+		// add a score to the top scores if it makes the cut, then publish them
+		private void insert(int score, long time) {
+			int pos = scores.length;
+			while (pos > 0 && scores[pos - 1] < score) {
+				pos--;
+			}
+			if (pos >= HIGHSCORES_KEPT) {
+				return;
+			}
+
+			int size = Math.min(scores.length + 1, HIGHSCORES_KEPT);
+			int[] newScores = new int[size];
+			long[] newTimes = new long[size];
+			System.arraycopy(scores, 0, newScores, 0, pos);
+			System.arraycopy(times, 0, newTimes, 0, pos);
+			System.arraycopy(scores, pos, newScores, pos + 1, size - pos - 1);
+			System.arraycopy(times, pos, newTimes, pos + 1, size - pos - 1);
+			newScores[pos] = score;
+			newTimes[pos] = time;
+
+			scores = newScores;
+			times = newTimes;
+			topScores = newScores.clone();
+		}
+
+		private static int checksum(long gen) {
+			ByteBuffer fields = ByteBuffer.allocate(12);
+			fields.putInt(HEADER_MAGIC).putLong(gen);
+			CRC32 crc = new CRC32();
+			crc.update(fields.array());
+			return (int) crc.getValue();
+		}
+
+		private static int checksum(long gen, int score, long time) {
+			ByteBuffer fields = ByteBuffer.allocate(24);
+			fields.putLong(gen).putInt(MAGIC).putInt(score).putLong(time);
+			CRC32 crc = new CRC32();
+			crc.update(fields.array());
+			return (int) crc.getValue();
+		}
+	}
+
 	// the component in the window that receives keyboard input and represents the drawing canvas
 	private static class DrawingSpace extends JComponent {	
 
@@ -701,9 +1316,604 @@ public class PixelPilot extends JFrame {
 		}
 	}
 
+	// randomly press and release keys, like a very confused player would
+	private static void driveSoakThrust(Random driver) {
+		wDown = driver.nextInt(3) == 0;
+		aDown = driver.nextInt(6) == 0;
+		sDown = driver.nextInt(6) == 0;
+		dDown = driver.nextInt(6) == 0;
+	}
+
+	// turn the ship toward the nearest asteroid and fire once it's lined up. Shooting the field
+	// down keeps new asteroids spawning, which is where a long game does most of its allocating
+	private static void driveSoakAim() {
+		double sx = ship.x + FIGHTER_WIDTH / 2.0;
+		double sy = ship.y + FIGHTER_HEIGHT / 2.0;
+		Asteroid nearest = null;
+		double nearestDistance = Double.MAX_VALUE;
+		for (int i = 0; i < chunks.size(); i++) {
+			ArrayList<Asteroid> targets = chunks.get(i).asteroids;
+			for (int j = 0; j < targets.size(); j++) {
+				Asteroid target = targets.get(j);
+				double distance = Math.hypot(target.x + target.diameter / 2.0 - sx, target.y + target.diameter / 2.0 - sy);
+				if (distance < nearestDistance) {
+					nearest = target;
+					nearestDistance = distance;
+				}
+			}
+		}
+
+		jDown = false;
+		kDown = false;
+		spDown = false;
+		if (nearest == null) {
+			return;
+		}
+
+		// the ship points straight up at r = 0, so it faces angle theta at r = theta + 90
+		double theta = Math.toDegrees(Math.atan2(nearest.y + nearest.diameter / 2.0 - sy, nearest.x + nearest.diameter / 2.0 - sx));
+		double turn = ((theta + 90 - ship.r) % 360 + 540) % 360 - 180; // shortest way around, in [-180, 180)
+		kDown = turn > SOAK_AIM_TOLERANCE;
+		jDown = turn < -SOAK_AIM_TOLERANCE;
+		spDown = Math.abs(turn) <= SOAK_AIM_TOLERANCE * 2;
+	}
+
+	// tally every collection the game causes. Forced collections from the benchmark itself are ignored
+	private static void listenForGC() {
+		NotificationListener listener = new NotificationListener() {
+			public void handleNotification(Notification n, Object handback) {
+				if (!n.getType().equals(com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+					return;
+				}
+				com.sun.management.GarbageCollectionNotificationInfo info =
+						com.sun.management.GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+				if (info.getGcCause().equals("System.gc()")) {
+					return;
+				}
+				long duration = info.getGcInfo().getDuration();
+				soakGCCount.incrementAndGet();
+				soakGCTime.addAndGet(duration);
+				soakMaxGCPause.accumulateAndGet(duration, Math::max);
+			}
+		};
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+		}
+	}
+
+	// heap used right after the last collection, summed over all heap memory pools
+	private static long getHeapAfterGC() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+				used += pool.getCollectionUsage().getUsed();
+			}
+		}
+		return used;
+	}
+
+	// bytes allocated by every thread so far, not just this one, since images are scaled on AWT's
+	// image fetcher threads. A thread that exits takes what it allocated since the last call
+	private static long getAllocatedBytes(com.sun.management.ThreadMXBean threads) {
+		long[] ids = threads.getAllThreadIds();
+		long[] bytes = threads.getThreadAllocatedBytes(ids);
+		for (int i = 0; i < ids.length; i++) {
+			if (bytes[i] < 0) {
+				continue; // exited since getAllThreadIds()
+			}
+			Long last = soakThreadBytes.put(ids[i], bytes[i]);
+			soakAllocatedBytes += bytes[i] - (last == null ? 0 : last);
+		}
+		return soakAllocatedBytes;
+	}
+
+	// heap used after a full collection, as close as we can get to the live set size
+	private static long getLiveHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	// runs hours of simulated game time as fast as possible with a random input driver,
+	// sampling allocation and garbage collection along the way, then prints a JSON report
+	// to stdout. Returns whether every threshold passed.
+	// arguments: [hours] [seed] [-render] [-batch]
+	private static boolean runSoak(String[] args) {
+		double hours = SOAK_DEFAULT_HOURS;
+		long seed = System.nanoTime();
+		boolean render = false;
+		int numbers = 0;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("-render")) {
+				render = true;
+			} else if (args[i].equals("-batch")) {
+				batchIntegration = true;
+			} else if (numbers++ == 0) {
+				hours = Double.parseDouble(args[i]);
+			} else {
+				seed = Long.parseLong(args[i]);
+			}
+		}
+
+		// optionally render every frame to an offscreen image
+		Graphics2D g2 = null;
+		if (render) {
+			g2 = new BufferedImage(WINDOW_WIDTH, WINDOW_HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+		}
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		listenForGC();
+		Random driver = new Random(seed);
+		RAND.setSeed(seed); // makes the worlds, and so the whole run, the same for the same seed
+		double dt = 1.0 / TARGET_FRAMERATE;
+		long totalTicks = (long) (hours * 3600 * TARGET_FRAMERATE);
+		long gameTicks = SOAK_GAME_SECONDS * TARGET_FRAMERATE;
+		double holdTimer = 0;
+		int games = 1;
+
+		StringBuilder samples = new StringBuilder();
+		long baselineHeap = 0;
+		long maxBytesPerTick = 0;
+		long measuredBytes = 0;
+		long measuredTicks = 0;
+		long measuredGCCount = 0;
+		long measuredGCTime = 0;
+		long measuredWallTime = 0;
+		long maxGCPause = 0;
+
+		resetGame();
+		long sampleStart = System.nanoTime();
+		long sampleBytes = getAllocatedBytes(threads);
+		long sampleGCCount = 0;
+		long sampleGCTime = 0;
+
+		for (long tick = 1; tick <= totalTicks; tick++) {
+			// change thrust every so often, but keep aiming every tick
+			holdTimer -= dt;
+			if (holdTimer <= 0) {
+				holdTimer = driver.nextDouble() * SOAK_INPUT_HOLD_RANGE + SOAK_INPUT_HOLD_MIN;
+				driveSoakThrust(driver);
+			}
+			driveSoakAim();
+
+			// same flow as the main game loop, minus the waiting. Lives are topped up so crashes
+			// don't cut games short, and every game lasts the same time
+			numLives = Math.max(numLives, INITIAL_LIVES);
+			updateGame(dt);
+			if (render) {
+				renderFrame(g2);
+			}
+			if (tick % gameTicks == 0) {
+				resetGame();
+				games++;
+			}
+
+			if (tick % SOAK_TICKS_PER_SAMPLE != 0) {
+				continue;
+			}
+
+			// take a sample
+			long now = System.nanoTime();
+			long bytes = getAllocatedBytes(threads);
+			long gcCount = soakGCCount.get();
+			long gcTime = soakGCTime.get();
+			long gcPause = soakMaxGCPause.getAndSet(0);
+			long sample = tick / SOAK_TICKS_PER_SAMPLE;
+			long bytesPerTick = (bytes - sampleBytes) / SOAK_TICKS_PER_SAMPLE;
+
+			if (sample == SOAK_WARMUP_SAMPLES) {
+				// warmup is over, so measure the heap the rest of the run will be compared against
+				baselineHeap = getLiveHeap();
+				now = System.nanoTime();
+				bytes = getAllocatedBytes(threads);
+			} else if (sample > SOAK_WARMUP_SAMPLES) {
+				maxBytesPerTick = Math.max(maxBytesPerTick, bytesPerTick);
+				measuredBytes += bytes - sampleBytes;
+				measuredTicks += SOAK_TICKS_PER_SAMPLE;
+				measuredGCCount += gcCount - sampleGCCount;
+				measuredGCTime += gcTime - sampleGCTime;
+				measuredWallTime += now - sampleStart;
+				maxGCPause = Math.max(maxGCPause, gcPause);
+			}
+
+			int numTargets = 0;
+			for (Chunk chunk : chunks) {
+				numTargets += chunk.asteroids.size();
+			}
+
+			if (samples.length() > 0) {
+				samples.append(",\n");
+			}
+			samples.append("    {\"minute\": ").append(sample)
+				.append(", \"warmup\": ").append(sample <= SOAK_WARMUP_SAMPLES)
+				.append(", \"bytesPerTick\": ").append(bytesPerTick)
+				.append(", \"gcCount\": ").append(gcCount - sampleGCCount)
+				.append(", \"gcTimeMs\": ").append(gcTime - sampleGCTime)
+				.append(", \"maxGCPauseMs\": ").append(gcPause)
+				.append(", \"heapAfterGC\": ").append(getHeapAfterGC())
+				.append(", \"chunks\": ").append(chunks.size())
+				.append(", \"targets\": ").append(numTargets)
+				.append(", \"bullets\": ").append(bullets.size())
+				.append(", \"score\": ").append(score)
+				.append("}");
+
+			sampleStart = now;
+			sampleBytes = bytes;
+			sampleGCCount = gcCount;
+			sampleGCTime = gcTime;
+		}
+
+		// compare the live heap at the end against the one after warmup to spot leaks
+		long finalHeap = getLiveHeap();
+		long heapGrowth = finalHeap - baselineHeap;
+		long avgBytesPerTick = measuredTicks > 0 ? measuredBytes / measuredTicks : 0;
+		double gcFraction = measuredWallTime > 0 ? measuredGCTime * 1e6 / measuredWallTime : 0;
+
+		long maxAvgBytesPerTick = render ? SOAK_MAX_RENDER_BYTES_PER_TICK : SOAK_MAX_BYTES_PER_TICK;
+		boolean allocationPass = avgBytesPerTick <= maxAvgBytesPerTick;
+		boolean heapPass = measuredTicks == 0 || heapGrowth <= SOAK_MAX_HEAP_GROWTH;
+		boolean gcPass = maxGCPause <= SOAK_MAX_GC_PAUSE_MS;
+		boolean pass = measuredTicks > 0 && allocationPass && heapPass && gcPass;
+
+		StringBuilder report = new StringBuilder();
+		report.append("{\n");
+		report.append("  \"hours\": ").append(hours).append(",\n");
+		report.append("  \"seed\": ").append(seed).append(",\n");
+		report.append("  \"render\": ").append(render).append(",\n");
+		report.append("  \"batch\": ").append(batchIntegration).append(",\n");
+		report.append("  \"kernel\": \"").append(PHYSICS_BATCH.getKernel().getName()).append("\",\n");
+		report.append("  \"ticks\": ").append(totalTicks).append(",\n");
+		report.append("  \"games\": ").append(games).append(",\n");
+		report.append("  \"avgNanosPerTick\": ").append(measuredTicks > 0 ? measuredWallTime / measuredTicks : 0).append(",\n");
+		report.append("  \"avgBytesPerTick\": ").append(avgBytesPerTick).append(",\n");
+		report.append("  \"maxBytesPerTick\": ").append(maxBytesPerTick).append(",\n");
+		report.append("  \"gcCount\": ").append(measuredGCCount).append(",\n");
+		report.append("  \"gcTimeMs\": ").append(measuredGCTime).append(",\n");
+		report.append("  \"maxGCPauseMs\": ").append(maxGCPause).append(",\n");
+		report.append("  \"gcFraction\": ").append(gcFraction).append(",\n");
+		report.append("  \"baselineHeap\": ").append(baselineHeap).append(",\n");
+		report.append("  \"finalHeap\": ").append(finalHeap).append(",\n");
+		report.append("  \"heapGrowth\": ").append(heapGrowth).append(",\n");
+		report.append("  \"thresholds\": {\"maxAvgBytesPerTick\": ").append(maxAvgBytesPerTick)
+			.append(", \"maxHeapGrowth\": ").append(SOAK_MAX_HEAP_GROWTH)
+			.append(", \"maxGCPauseMs\": ").append(SOAK_MAX_GC_PAUSE_MS).append("},\n");
+		report.append("  \"results\": {\"allocation\": ").append(allocationPass)
+			.append(", \"heapGrowth\": ").append(heapPass)
+			.append(", \"gc\": ").append(gcPass).append("},\n");
+		report.append("  \"pass\": ").append(pass).append(",\n");
+		report.append("  \"samples\": [\n").append(samples).append("\n  ]\n");
+		report.append("}");
+		System.out.println(report);
+		return pass;
+	}
+
+	// report the result of one self test check
+	private static void check(boolean passed, String description) {
+		System.out.println((passed ? "ok   " : "FAIL ") + description);
+		if (!passed) {
+			selfTestFailures++;
+		}
+	}
+
+	// runs checks for things that are hard to see by playing, printing a line for each one.
+	// Returns whether every check passed
+	private static boolean runSelfTest() {
+		try {
+			File file = File.createTempFile("pixelpilot_scores", null);
+			try {
+				testHighScores(file);
+			} finally {
+				file.delete();
+			}
+		} catch (IOException e) {
+			check(false, "high score log could not be opened: " + e);
+		}
+		testIntegrationKernels();
+		return selfTestFailures == 0;
+	}
+
+	// every available integration kernel must match PhysicsObject.update() bit for bit, including
+	// for batches that don't fill a whole vector and rotations far outside [0, 360)
+	private static void testIntegrationKernels() {
+		ArrayList<IntegrationKernel> kernels = new ArrayList<IntegrationKernel>();
+		kernels.add(new ScalarIntegrationKernel());
+		IntegrationKernel loaded = loadIntegrationKernel();
+		if (loaded instanceof ScalarIntegrationKernel) {
+			System.out.println("skip vector kernel is not available");
+		} else {
+			kernels.add(loaded);
+		}
+
+		for (IntegrationKernel kernel : kernels) {
+			Random rand = new Random(2);
+			PhysicsBatch batch = new PhysicsBatch(kernel);
+			ArrayList<PhysicsObject> expected = new ArrayList<PhysicsObject>();
+			ArrayList<PhysicsObject> actual = new ArrayList<PhysicsObject>();
+			int mismatches = 0;
+			for (int round = 0; round < 1000; round++) {
+				int n = rand.nextInt(100);
+				double dt = round % 10 == 0 ? 10 : rand.nextDouble() / 10;
+				expected.clear();
+				actual.clear();
+				for (int i = 0; i < n; i++) {
+					PhysicsObject a = new PhysicsObject();
+					PhysicsObject b = new PhysicsObject();
+					a.x = b.x = (rand.nextDouble() - .5) * 4000;
+					a.y = b.y = (rand.nextDouble() - .5) * 4000;
+					a.r = b.r = rand.nextInt(4) == 0 ? 360 * Math.nextDown(1.0) : rand.nextDouble() * 360;
+					a.dx = b.dx = (rand.nextDouble() - .5) * 2000;
+					a.dy = b.dy = (rand.nextDouble() - .5) * 2000;
+					a.dr = b.dr = (rand.nextDouble() - .5) * 720;
+					expected.add(a);
+					actual.add(b);
+				}
+
+				for (PhysicsObject o : expected) {
+					o.update(dt);
+				}
+				batch.clear();
+				batch.addAll(actual);
+				batch.update(dt);
+
+				for (int i = 0; i < n; i++) {
+					PhysicsObject a = expected.get(i);
+					PhysicsObject b = actual.get(i);
+					if (Double.doubleToLongBits(a.x) != Double.doubleToLongBits(b.x) ||
+							Double.doubleToLongBits(a.y) != Double.doubleToLongBits(b.y) ||
+							Double.doubleToLongBits(a.r) != Double.doubleToLongBits(b.r)) {
+						mismatches++;
+					}
+				}
+			}
+			check(mismatches == 0, kernel.getName() + " kernel matches PhysicsObject.update()");
+		}
+	}
+
+	// the best HIGHSCORES_KEPT scores of everything recorded, best first
+	private static int[] getExpectedTopScores(ArrayList<Integer> recorded) {
+		ArrayList<Integer> sorted = new ArrayList<Integer>(recorded);
+		Collections.sort(sorted, Collections.reverseOrder());
+		int[] top = new int[Math.min(sorted.size(), HIGHSCORES_KEPT)];
+		for (int i = 0; i < top.length; i++) {
+			top[i] = sorted.get(i);
+		}
+		return top;
+	}
+
+	// simulate crashes in the middle of writing the high score log, then make sure reopening it
+	// recovers every score that was completely written
+	private static void testHighScores(File file) throws IOException {
+		Random rand = new Random(1);
+		ArrayList<Integer> recorded = new ArrayList<Integer>();
+		HighScores log = new HighScores(file);
+		log.open();
+		check(log.getTopScores().length == 0, "new log is empty");
+
+		// a second game can't open the log while the first one has it
+		HighScores other = new HighScores(file);
+		boolean locked = false;
+		try {
+			other.open();
+		} catch (IOException e) {
+			locked = true;
+		}
+		other.closeLog();
+		check(locked, "log is only opened by one game at a time");
+
+		// record scores until the next record would straddle a page boundary
+		int page = 4096;
+		while (log.end / page == (log.end + HighScores.RECORD_SIZE - 1) / page) {
+			int score = rand.nextInt(10000);
+			log.record(score, recorded.size());
+			recorded.add(score);
+		}
+		int tornOffset = log.end;
+		long generation = log.generation;
+		log.closeLog();
+
+		// crash partway through writing a record: only the part in the first page made it to disk
+		ByteBuffer torn = ByteBuffer.allocate(HighScores.RECORD_SIZE);
+		torn.putInt(HighScores.MAGIC).putInt(1000000).putLong(0).putInt(HighScores.checksum(generation, 1000000, 0));
+		torn.flip();
+		torn.limit(page - tornOffset % page);
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+		try {
+			channel.write(torn, tornOffset);
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+
+		log = new HighScores(file);
+		log.open();
+		check(Arrays.equals(log.getTopScores(), getExpectedTopScores(recorded)),
+				"record torn across a page boundary is ignored");
+		check(log.end == tornOffset, "next record overwrites the torn one");
+		log.record(20000, recorded.size());
+		recorded.add(20000);
+		log.closeLog();
+
+		log = new HighScores(file);
+		log.open();
+		check(Arrays.equals(log.getTopScores(), getExpectedTopScores(recorded)), "record over the torn one is kept");
+
+		// fill the live region, then crash after writing the compacted records but before
+		// writing the header that makes them live
+		while (log.end + HighScores.RECORD_SIZE <= log.region + HighScores.REGION_SIZE) {
+			int score = rand.nextInt(10000);
+			log.record(score, recorded.size());
+			recorded.add(score);
+		}
+		int region = log.region;
+		generation = log.generation;
+		log.writeCompacted(HighScores.REGION_SIZE - region);
+		log.closeLog();
+
+		log = new HighScores(file);
+		log.open();
+		check(log.region == region && log.generation == generation, "interrupted compaction leaves the old region live");
+		check(Arrays.equals(log.getTopScores(), getExpectedTopScores(recorded)), "interrupted compaction loses no scores");
+
+		// this time let compaction finish
+		int score = rand.nextInt(10000);
+		log.record(score, recorded.size());
+		recorded.add(score);
+		check(log.region != region && log.generation == generation + 1, "full log is compacted into the other region");
+		log.closeLog();
+
+		log = new HighScores(file);
+		log.open();
+		check(log.region != region && log.generation == generation + 1, "compacted region is live after reopening");
+		check(Arrays.equals(log.getTopScores(), getExpectedTopScores(recorded)), "compaction loses no top scores");
+
+		// fill up again and let a new best score trigger compaction. It must be written once
+		while (log.end + HighScores.RECORD_SIZE <= log.region + HighScores.REGION_SIZE) {
+			score = rand.nextInt(10000);
+			log.record(score, recorded.size());
+			recorded.add(score);
+		}
+		log.record(30000, recorded.size());
+		recorded.add(30000);
+		log.closeLog();
+
+		log = new HighScores(file);
+		log.open();
+		int[] top = log.getTopScores();
+		check(top.length > 1 && top[0] == 30000 && top[1] != 30000, "score that triggers compaction is kept once");
+		check(Arrays.equals(top, getExpectedTopScores(recorded)), "compaction by a new best loses no top scores");
+
+		// fill up again and crash while writing the header of the compacted region
+		while (log.end + HighScores.RECORD_SIZE <= log.region + HighScores.REGION_SIZE) {
+			score = rand.nextInt(10000);
+			log.record(score, recorded.size());
+			recorded.add(score);
+		}
+		region = log.region;
+		generation = log.generation;
+		int next = HighScores.REGION_SIZE - region;
+		log.writeCompacted(next);
+		log.log.putLong(next + 4, generation + 1);
+		log.log.putInt(next, HighScores.HEADER_MAGIC);
+		log.log.force();
+		log.closeLog();
+
+		log = new HighScores(file);
+		log.open();
+		check(log.region == region && log.generation == generation, "torn region header leaves the old region live");
+		check(Arrays.equals(log.getTopScores(), getExpectedTopScores(recorded)), "torn region header loses no scores");
+		log.closeLog();
+	}
+
+	// nanoseconds per object to integrate KERNELBENCH_OBJECTS objects, n at a time, after an
+	// equally long warmup. mode is "update" for PhysicsObject.update(), "batch" for a PhysicsBatch
+	// including copying in and out, or "kernel" for the batch's kernel alone
+	private static double timeIntegration(String mode, IntegrationKernel kernel, int n) {
+		double dt = 1.0 / TARGET_FRAMERATE;
+		Random rand = new Random(3);
+		ArrayList<PhysicsObject> objects = new ArrayList<PhysicsObject>();
+		for (int i = 0; i < n; i++) {
+			PhysicsObject o = new PhysicsObject();
+			o.x = rand.nextDouble() * WINDOW_WIDTH;
+			o.y = rand.nextDouble() * WINDOW_HEIGHT;
+			o.r = rand.nextDouble() * 360;
+			o.dx = (rand.nextDouble() - .5) * 200;
+			o.dy = (rand.nextDouble() - .5) * 200;
+			o.dr = (rand.nextDouble() - .5) * 360;
+			objects.add(o);
+		}
+		PhysicsBatch batch = new PhysicsBatch(kernel);
+		batch.addAll(objects);
+
+		// pick the path once, so the timed loops do nothing but integrate
+		long iterations = KERNELBENCH_OBJECTS / n;
+		boolean kernelOnly = mode.equals("kernel");
+		long elapsed = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			long start = System.nanoTime();
+			if (mode.equals("update")) {
+				for (long i = 0; i < iterations; i++) {
+					for (int j = 0; j < n; j++) {
+						objects.get(j).update(dt);
+					}
+				}
+			} else if (mode.equals("batch")) {
+				for (long i = 0; i < iterations; i++) {
+					batch.clear();
+					batch.addAll(objects);
+					batch.update(dt);
+				}
+			} else {
+				for (long i = 0; i < iterations; i++) {
+					kernel.integrate(batch.x, batch.y, batch.r, batch.dx, batch.dy, batch.dr, n, dt);
+				}
+			}
+			elapsed = System.nanoTime() - start;
+
+			// the kernel alone leaves its results in the batch's arrays
+			for (int j = 0; j < n; j++) {
+				if (kernelOnly) {
+					kernelBenchChecksum += batch.x[j] + batch.y[j] + batch.r[j];
+				} else {
+					PhysicsObject o = objects.get(j);
+					kernelBenchChecksum += o.x + o.y + o.r;
+				}
+			}
+		}
+		return (double) elapsed / (iterations * n);
+	}
+
+	// compares integrating objects one at a time against the batch kernels at a few batch sizes
+	// and prints a JSON report. A plain timing loop rather than JMH, since there is no build to
+	// pull JMH in, so treat small differences with suspicion
+	private static void runKernelBench() {
+		IntegrationKernel scalar = new ScalarIntegrationKernel();
+		IntegrationKernel loaded = loadIntegrationKernel();
+		boolean hasVector = !(loaded instanceof ScalarIntegrationKernel);
+
+		StringBuilder report = new StringBuilder();
+		report.append("{\n");
+		report.append("  \"vectorKernel\": ").append(hasVector ? "\"" + loaded.getName() + "\"" : "null").append(",\n");
+		report.append("  \"nanosPerObject\": [\n");
+		for (int i = 0; i < KERNELBENCH_SIZES.length; i++) {
+			int n = KERNELBENCH_SIZES[i];
+			report.append("    {\"n\": ").append(n)
+				.append(", \"update\": ").append(timeIntegration("update", scalar, n))
+				.append(", \"batchScalar\": ").append(timeIntegration("batch", scalar, n))
+				.append(", \"kernelScalar\": ").append(timeIntegration("kernel", scalar, n));
+			if (hasVector) {
+				report.append(", \"batchVector\": ").append(timeIntegration("batch", loaded, n))
+					.append(", \"kernelVector\": ").append(timeIntegration("kernel", loaded, n));
+			}
+			report.append(i < KERNELBENCH_SIZES.length - 1 ? "},\n" : "}\n");
+		}
+		report.append("  ],\n");
+		report.append("  \"checksum\": ").append(kernelBenchChecksum).append("\n");
+		report.append("}");
+		System.out.println(report);
+	}
+
 	// displays the game window and controls the main game loop
 	public static void main(String[] args) {
+		// run the soak benchmark instead of the game (exits with status 1 on failure)
+		if (args.length > 0 && args[0].equals("-soak")) {
+			System.exit(runSoak(args) ? 0 : 1);
+		}
+
+		// compare the physics integration kernels instead of running the game
+		if (args.length > 0 && args[0].equals("-kernelbench")) {
+			runKernelBench();
+			return;
+		}
+
+		// run the self tests instead of the game (exits with status 1 on failure)
+		if (args.length > 0 && args[0].equals("-selftest")) {
+			System.exit(runSelfTest() ? 0 : 1);
+		}
+
+		// integrate physics in batches (with the Vector API kernel if it's available)
+		batchIntegration = args.length > 0 && args[0].equals("-batch");
+
 		INSTANCE.setVisible(true);	
+		HIGH_SCORES.start();
 
 		// game reset loop
 		while (true) {
@@ -720,6 +1930,11 @@ public class PixelPilot extends JFrame {
 				// update game physics if the game is ongoing and not paused
 				if (numLives > 0 && !isPaused) {
 					updateGame(dt / 1000); // transform milliseconds to seconds
+
+					// the game just ended, so record the score
+					if (numLives <= 0) {
+						HIGH_SCORES.submit(score);
+					}
 				}
 
 				INSTANCE.repaint(); // calls paint() in DrawingSpace, which calls renderFrame() in PixelPilot
@@ -0,0 +1,51 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+
+// integrates physics objects with the incubating Vector API, a whole vector's worth of objects at
+// a time. Only compiled and loaded when the jdk.incubator.vector module is added (see README),
+// otherwise PixelPilot falls back to its scalar kernel. Gives exactly the same results as
+// PhysicsObject.update()
+class VectorIntegrationKernel implements PixelPilot.IntegrationKernel {
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	public String getName() {
+		return "vector" + SPECIES.length();
+	}
+
+	public void integrate(double[] x, double[] y, double[] r, double[] dx, double[] dy, double[] dr, int n, double dt) {
+		int i = 0;
+		for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, x, i)
+				.add(DoubleVector.fromArray(SPECIES, dx, i).mul(dt))
+				.intoArray(x, i);
+			DoubleVector.fromArray(SPECIES, y, i)
+				.add(DoubleVector.fromArray(SPECIES, dy, i).mul(dt))
+				.intoArray(y, i);
+
+			// the Vector API has no floating point remainder. When every lane is in [0, 720),
+			// % 360 is the same as subtracting 360 from the lanes that are at least 360 (and the
+			// subtraction is exact). Anything else, like a huge dr * dt, takes the scalar path
+			DoubleVector rot = DoubleVector.fromArray(SPECIES, r, i)
+				.add(360)
+				.add(DoubleVector.fromArray(SPECIES, dr, i).mul(dt));
+			VectorMask<Double> inRange = rot.compare(VectorOperators.GE, 0).and(rot.compare(VectorOperators.LT, 720));
+			if (inRange.allTrue()) {
+				rot.sub(360, rot.compare(VectorOperators.GE, 360)).intoArray(r, i);
+			} else {
+				for (int j = i; j < i + SPECIES.length(); j++) {
+					r[j] = (r[j] + 360 + dr[j] * dt) % 360;
+				}
+			}
+		}
+
+		// leftovers that don't fill a whole vector
+		for (; i < n; i++) {
+			x[i] += dx[i] * dt;
+			y[i] += dy[i] * dt;
+			r[i] = (r[i] + 360 + dr[i] * dt) % 360;
+		}
+	}
+}